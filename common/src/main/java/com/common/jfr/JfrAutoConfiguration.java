@@ -0,0 +1,31 @@
+package com.common.jfr;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 注册 JFR 采样端点
+ * 低于 8u262 的 JDK 8 没有 jdk.jfr，此时不注册
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(name = "jdk.jfr.FlightRecorder")
+public class JfrAutoConfiguration {
+
+    /**
+     * @param maxSeconds             单次最长录制秒数
+     * @param cooldownSeconds        两次录制的最小间隔
+     * @param requestThreadPrefix    请求处理线程名前缀，只统计这些线程上的阻塞事件
+     * @param tlabAllocationFallback JDK 16 以下没有限速的分配采样，按 TLAB 采样开销较高，需显式开启
+     * @param directory              录制文件目录，启动时清理
+     */
+    @Bean
+    public JfrEndpoint jfrEndpoint(@Value("${jfr.max-seconds:60}") int maxSeconds,
+                                   @Value("${jfr.cooldown-seconds:300}") int cooldownSeconds,
+                                   @Value("${jfr.request-thread-prefix}") String requestThreadPrefix,
+                                   @Value("${jfr.tlab-allocation-fallback:false}") boolean tlabAllocationFallback,
+                                   @Value("${jfr.directory:${java.io.tmpdir}/${spring.application.name}-jfr}") String directory) {
+        return new JfrEndpoint(maxSeconds, cooldownSeconds, requestThreadPrefix, tlabAllocationFallback, directory);
+    }
+}
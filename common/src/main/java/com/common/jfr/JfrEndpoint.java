@@ -0,0 +1,309 @@
+package com.common.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JFR 性能采样端点
+ * POST /actuator/jfr 按指定秒数录制（default 低开销配置），返回汇总报告
+ * GET /actuator/jfr/{name} 下载最近一次录制的 .jfr 文件
+ * 同一时间只允许一个录制，两次录制之间有冷却时间，被限流时返回 429
+ * 录制中不含环境变量、系统属性、JVM 参数等敏感事件
+ * 阻塞事件只统计线程名以 request-thread-prefix 开头的请求处理线程，录制线程本身除外
+ * 由 JfrAutoConfiguration 注册
+ */
+@Endpoint(id = "jfr")
+@Slf4j
+public class JfrEndpoint {
+
+    static final int TOP_N = 20;
+    /**
+     * 阻塞类事件，default 配置下只记录超过阈值（20ms）的
+     */
+    private static final String[] BLOCKING_EVENTS = {"jdk.ThreadPark", "jdk.JavaMonitorEnter", "jdk.JavaMonitorWait",
+            "jdk.ThreadSleep", "jdk.SocketRead", "jdk.SocketWrite", "jdk.FileRead", "jdk.FileWrite"};
+    /**
+     * 会带出环境变量、系统属性、启动参数、进程命令行的事件，录制时关闭
+     */
+    private static final String[] SENSITIVE_EVENTS = {"jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty",
+            "jdk.JVMInformation", "jdk.SystemProcess"};
+
+    private final Lock lock = new ReentrantLock();
+    private volatile long lastStartMillis;
+    private volatile Path lastRecording;
+
+    private final int maxSeconds;
+    private final int cooldownSeconds;
+    private final String requestThreadPrefix;
+    private final boolean tlabAllocationFallback;
+    private final String directory;
+
+    public JfrEndpoint(int maxSeconds, int cooldownSeconds, String requestThreadPrefix, boolean tlabAllocationFallback,
+                       String directory) {
+        this.maxSeconds = maxSeconds;
+        this.cooldownSeconds = cooldownSeconds;
+        this.requestThreadPrefix = requestThreadPrefix;
+        this.tlabAllocationFallback = tlabAllocationFallback;
+        this.directory = directory;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "jfr-*.jfr")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        Path file = lastRecording;
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> record(@Nullable Integer seconds) {
+        if (!FlightRecorder.isAvailable()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        int duration = Math.max(1, Math.min(seconds == null ? 30 : seconds, maxSeconds));
+        //已有录制或处于冷却期直接拒绝，不排队
+        if (!lock.tryLock()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        try {
+            if (System.currentTimeMillis() - lastStartMillis < TimeUnit.SECONDS.toMillis(cooldownSeconds)) {
+                return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+            }
+            lastStartMillis = System.currentTimeMillis();
+            String allocation = allocationMode();
+            long recorderThreadId = Thread.currentThread().getId();
+            Path file = capture(duration, allocation);
+            Path previous = lastRecording;
+            lastRecording = file;
+            if (previous != null) {
+                Files.deleteIfExists(previous);
+            }
+            Map<String, Object> report = summarize(file, recorderThreadId);
+            report.put("recording", recordingName(file));
+            report.put("seconds", duration);
+            report.put("allocationSampling", allocation);
+            return new WebEndpointResponse<>(report);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        } catch (IOException | ParseException e) {
+            log.error("JFR 录制失败", e);
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<Resource> recording(@Selector String name) {
+        Path file = lastRecording;
+        //只允许下载最近一次录制，避免读取任意文件
+        if (file == null || !recordingName(file).equals(name) || !Files.exists(file)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file));
+    }
+
+    private Path capture(int seconds, String allocation) throws IOException, ParseException, InterruptedException {
+        Path file = Files.createTempFile(Paths.get(directory), "jfr-", ".jfr");
+        try (Recording recording = new Recording(Configuration.getConfiguration("default"))) {
+            recording.setName("actuator-jfr");
+            recording.setToDisk(true);
+            recording.setMaxSize(64 * 1024 * 1024);
+            recording.setDestination(file);
+            for (String name : SENSITIVE_EVENTS) {
+                recording.disable(name);
+            }
+            enableAllocationSampling(recording, allocation);
+            recording.start();
+            TimeUnit.SECONDS.sleep(seconds);
+            recording.stop();
+        } catch (IOException | ParseException | InterruptedException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * 录制名称不带后缀，避免路径中的 . 被当作扩展名处理
+     */
+    private static String recordingName(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.substring(0, fileName.length() - ".jfr".length());
+    }
+
+    /**
+     * 分配采样方式：sample 限速采样（JDK 16+），tlab 按 TLAB 采样（需开启 jfr.tlab-allocation-fallback），
+     * disabled 不采集分配，报告中分配热点为空
+     */
+    private String allocationMode() {
+        for (EventType type : FlightRecorder.getFlightRecorder().getEventTypes()) {
+            if ("jdk.ObjectAllocationSample".equals(type.getName())) {
+                return "sample";
+            }
+        }
+        return tlabAllocationFallback ? "tlab" : "disabled";
+    }
+
+    private static void enableAllocationSampling(Recording recording, String allocation) {
+        if ("sample".equals(allocation)) {
+            recording.enable("jdk.ObjectAllocationSample").with("throttle", "150/s").withStackTrace();
+        } else if ("tlab".equals(allocation)) {
+            recording.enable("jdk.ObjectAllocationInNewTLAB").withStackTrace();
+            recording.enable("jdk.ObjectAllocationOutsideTLAB").withStackTrace();
+        }
+    }
+
+    /**
+     * recorderThreadId 为执行录制的线程，它在录制期间 sleep，不计入阻塞
+     */
+    Map<String, Object> summarize(Path file, long recorderThreadId) throws IOException {
+        Map<String, Long> allocations = new HashMap<>();
+        Map<String, Long> cpuFrames = new HashMap<>();
+        List<Map<String, Object>> gcPauses = new ArrayList<>();
+        List<Map<String, Object>> blocking = new ArrayList<>();
+        long cpuSamples = 0;
+        try (RecordingFile recordingFile = new RecordingFile(file)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                String type = event.getEventType().getName();
+                switch (type) {
+                    case "jdk.ExecutionSample":
+                        cpuSamples++;
+                        cpuFrames.merge(topFrame(event), 1L, Long::sum);
+                        break;
+                    case "jdk.ObjectAllocationSample":
+                        allocations.merge(topFrame(event), event.getLong("weight"), Long::sum);
+                        break;
+                    case "jdk.ObjectAllocationInNewTLAB":
+                        allocations.merge(topFrame(event), event.getLong("tlabSize"), Long::sum);
+                        break;
+                    case "jdk.ObjectAllocationOutsideTLAB":
+                        allocations.merge(topFrame(event), event.getLong("allocationSize"), Long::sum);
+                        break;
+                    case "jdk.GarbageCollection":
+                        Map<String, Object> gc = new LinkedHashMap<>();
+                        gc.put("name", event.getString("name"));
+                        gc.put("cause", event.getString("cause"));
+                        gc.put("sumOfPausesMs", event.getDuration("sumOfPauses").toMillis());
+                        gc.put("longestPauseMs", event.getDuration("longestPause").toMillis());
+                        gcPauses.add(gc);
+                        break;
+                    default:
+                        if (isRequestThreadBlocking(type, event, recorderThreadId)) {
+                            Map<String, Object> block = new LinkedHashMap<>();
+                            block.put("event", type);
+                            block.put("thread", event.getThread().getJavaName());
+                            block.put("durationMs", event.getDuration().toMillis());
+                            block.put("frame", topFrame(event));
+                            blocking.add(block);
+                        }
+                }
+            }
+        }
+        gcPauses.sort(Comparator.comparing((Map<String, Object> m) -> (Long) m.get("longestPauseMs")).reversed());
+        blocking.sort(Comparator.comparing((Map<String, Object> m) -> (Long) m.get("durationMs")).reversed());
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("cpuSamples", cpuSamples);
+        report.put("topCpuFrames", top(cpuFrames));
+        report.put("topAllocationSitesBytes", top(allocations));
+        report.put("gcCount", gcPauses.size());
+        report.put("gcPauses", gcPauses.subList(0, Math.min(TOP_N, gcPauses.size())));
+        report.put("requestThreadBlockingCount", blocking.size());
+        report.put("requestThreadBlocking", blocking.subList(0, Math.min(TOP_N, blocking.size())));
+        return report;
+    }
+
+    private boolean isRequestThreadBlocking(String type, RecordedEvent event, long recorderThreadId) {
+        for (String name : BLOCKING_EVENTS) {
+            if (name.equals(type)) {
+                RecordedThread thread = event.getThread();
+                return thread != null && thread.getJavaThreadId() != recorderThreadId
+                        && thread.getJavaName() != null && thread.getJavaName().startsWith(requestThreadPrefix)
+                        && !isIdleWorker(event);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 线程池空闲线程在 getTask 中等待任务，不算阻塞
+     */
+    private static boolean isIdleWorker(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return false;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if ("getTask".equals(frame.getMethod().getName())
+                    && "java.util.concurrent.ThreadPoolExecutor".equals(frame.getMethod().getType().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String topFrame(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    static Map<String, Long> top(Map<String, Long> counts) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_N)
+                .forEach(e -> result.put(e.getKey(), e.getValue()));
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package com.common.jfr;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrEndpointTest {
+
+    @TempDir
+    Path directory;
+
+    private JfrEndpoint endpoint;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (endpoint != null) {
+            endpoint.destroy();
+        }
+    }
+
+    private JfrEndpoint endpoint(int cooldownSeconds, String requestThreadPrefix) throws Exception {
+        endpoint = new JfrEndpoint(2, cooldownSeconds, requestThreadPrefix, false, directory.toString());
+        endpoint.init();
+        return endpoint;
+    }
+
+    @Test
+    void recordRejectsDuringCooldown() throws Exception {
+        JfrEndpoint endpoint = endpoint(300, "none-");
+        assertEquals(WebEndpointResponse.STATUS_OK, endpoint.record(1).getStatus());
+        WebEndpointResponse<Map<String, Object>> second = endpoint.record(1);
+        assertEquals(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS, second.getStatus());
+        assertNull(second.getBody());
+    }
+
+    @Test
+    void recordRejectsWhileRecording() throws Exception {
+        JfrEndpoint endpoint = endpoint(0, "none-");
+        CompletableFuture<WebEndpointResponse<Map<String, Object>>> first = CompletableFuture.supplyAsync(() -> endpoint.record(2));
+        TimeUnit.MILLISECONDS.sleep(500);
+        assertEquals(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS, endpoint.record(1).getStatus());
+        assertEquals(WebEndpointResponse.STATUS_OK, first.get(10, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    void recordingOnlyServesLatest() throws Exception {
+        JfrEndpoint endpoint = endpoint(0, "none-");
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.recording("jfr-1").getStatus());
+        String name = (String) endpoint.record(1).getBody().get("recording");
+
+        WebEndpointResponse<Resource> latest = endpoint.recording(name);
+        assertEquals(WebEndpointResponse.STATUS_OK, latest.getStatus());
+        assertTrue(latest.getBody().contentLength() > 0);
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.recording(name + "x").getStatus());
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.recording("../" + name).getStatus());
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.recording(name + ".jfr").getStatus());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordSummarizesWithoutRecorderThread() throws Exception {
+        //录制线程名也以该前缀开头，其 sleep 不应出现在阻塞事件中
+        JfrEndpoint endpoint = endpoint(0, Thread.currentThread().getName());
+        Map<String, Object> report = endpoint.record(1).getBody();
+
+        assertTrue(report.keySet().containsAll(Arrays.asList("cpuSamples", "topCpuFrames",
+                "topAllocationSitesBytes", "gcCount", "gcPauses", "requestThreadBlockingCount", "requestThreadBlocking",
+                "recording", "seconds", "allocationSampling")));
+        assertEquals(1, report.get("seconds"));
+        List<Map<String, Object>> blocking = (List<Map<String, Object>>) report.get("requestThreadBlocking");
+        assertTrue(blocking.stream().noneMatch(b -> "jdk.ThreadSleep".equals(b.get("event"))));
+        assertTrue(((Map<String, Long>) report.get("topCpuFrames")).size() <= JfrEndpoint.TOP_N);
+    }
+
+    @Test
+    void topKeepsLargestN() {
+        Map<String, Long> counts = new HashMap<>();
+        for (long i = 0; i < JfrEndpoint.TOP_N + 10; i++) {
+            counts.put("frame" + i, i);
+        }
+        Map<String, Long> top = JfrEndpoint.top(counts);
+        assertEquals(JfrEndpoint.TOP_N, top.size());
+        assertEquals(Long.valueOf(JfrEndpoint.TOP_N + 9), top.values().iterator().next());
+        assertTrue(top.values().stream().allMatch(v -> v >= 10));
+    }
+}
@@ -0,0 +1,36 @@
+package com.gateway.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * actuator 与业务流量共用 80 端口，jfr 端点只允许本机访问
+ * 其他 actuator 端点（如 gateway）不受影响
+ */
+@Component
+public class JfrAccessFilter implements WebFilter {
+
+    @Value("${management.endpoints.web.base-path:/actuator}/jfr")
+    private String jfrPath;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!path.equals(jfrPath) && !path.startsWith(jfrPath + "/")) {
+            return chain.filter(exchange);
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null || !remoteAddress.getAddress().isLoopbackAddress()) {
+            exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange);
+    }
+}
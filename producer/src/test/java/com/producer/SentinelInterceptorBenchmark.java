@@ -0,0 +1,134 @@
+package com.producer;
+
+import com.alibaba.csp.sentinel.adapter.spring.webmvc.SentinelWebInterceptor;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * sentinel 拦截器单请求开销
+ * 资源名由 SentinelWebInterceptor 取 HandlerMapping 匹配到的路由模板，这里直接在请求上设置模板模拟匹配结果
+ * 耗时只打印，在同一台机器上对比；首次 SphU 调用会启动 sentinel 的 transport，因此只在 benchmark profile 下执行
+ */
+@Slf4j
+@Tag("benchmark")
+class SentinelInterceptorBenchmark {
+
+    private static final int WARMUP = 100_000;
+    private static final int ITERATIONS = 500_000;
+    private static final int THREADS = 8;
+
+    private final SentinelWebInterceptor interceptor = new SentinelWebInterceptor();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    /**
+     * 不经过拦截器与经过拦截器的差值即 sentinel 每个请求的开销
+     */
+    @Test
+    void interceptorOverhead() throws Exception {
+        long without = nanosPerOp(() -> request("/sayHi"));
+        long with = nanosPerOp(() -> handle(request("/sayHi")));
+        log.info("sentinel interceptor: without {} ns/op, with {} ns/op, overhead {} ns/op", without, with, with - without);
+        ClusterNode node = ClusterBuilderSlot.getClusterNode("/sayHi");
+        assertNotNull(node);
+        assertTrue(node.totalRequest() > 0);
+    }
+
+    /**
+     * 多线程打同一个资源与各打各的资源对比，用于判断 StatisticNode 计数在热点资源上的争用
+     */
+    @Test
+    void hotResourceContention() throws Exception {
+        long shared = concurrentNanosPerOp(t -> "/sayHi");
+        long separate = concurrentNanosPerOp(t -> "/sayHi-" + t);
+        log.info("sentinel interceptor with {} threads: shared resource {} ns/op per thread, separate resources {} ns/op per thread",
+                THREADS, shared, separate);
+        for (int t = 0; t < THREADS; t++) {
+            assertNotNull(ClusterBuilderSlot.getClusterNode("/sayHi-" + t));
+        }
+    }
+
+    private static MockHttpServletRequest request(String template) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", template);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, template);
+        return request;
+    }
+
+    private MockHttpServletRequest handle(MockHttpServletRequest request) {
+        try {
+            if (interceptor.preHandle(request, response, this)) {
+                interceptor.afterCompletion(request, response, this, null);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return request;
+    }
+
+    private static long nanosPerOp(Supplier<MockHttpServletRequest> op) {
+        //累加结果，防止调用被优化掉
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += op.get().getRequestURI().length();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += op.get().getRequestURI().length();
+        }
+        long nanos = (System.nanoTime() - start) / ITERATIONS;
+        assertTrue(sink > 0);
+        return nanos;
+    }
+
+    private long concurrentNanosPerOp(IntFunction<String> templateOfThread) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            String template = templateOfThread.apply(t);
+            executor.execute(() -> {
+                try {
+                    try {
+                        for (int i = 0; i < WARMUP; i++) {
+                            handle(request(template));
+                        }
+                    } finally {
+                        ready.countDown();
+                    }
+                    go.await();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        handle(request(template));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        done.await();
+        long nanos = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return nanos / ITERATIONS;
+    }
+}